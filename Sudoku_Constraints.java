@@ -0,0 +1,265 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+public class Sudoku_Constraints
+{
+    // The size of the Sudoku grid (9x9)
+    private static final int GRID_SIZE = 9;
+    private static final int CELLS = GRID_SIZE * GRID_SIZE;
+
+    // Knight move offsets (row, col) used by the anti-knight rule
+    private static final int[][] KNIGHT_MOVES = {
+        {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}
+    };
+
+    // Plain Sudoku: rows, columns and 3x3 boxes
+    public static final Sudoku_Constraints STANDARD = new Sudoku_Constraints(false, false, false, new int[0][], new int[0]);
+
+    // Rule definition. Variants are flags rather than a composition history, so the same rules
+    // always compile to the same tables and name whatever order they were added in.
+    private final boolean diagonals;
+    private final boolean windows;
+    private final boolean antiKnight;
+    private final String name;
+
+    // Compiled tables, built once in the constructor and read directly by Sudoku_Solver
+    final boolean standard;     // True for plain Sudoku (no variant rules at all)
+    final int[][] units;        // Cells of every unit (a group where all digits must differ)
+    final int[][] unitsOf;      // Indexes of the units containing each cell
+    final int[][] peers;        // Every cell that may not hold the same digit as each cell
+    final int[][] extraPeers;   // Peers not covered by a shared unit (e.g. a knight's move away)
+    final int[][] cages;        // Killer cages: cells whose digits must add up to the cage sum
+    final int[] cageSums;       // Required sum of each cage
+    final int[] cageOf;         // Cage index of each cell, -1 if the cell is in no cage
+
+    // Compiles a rule set into its peer and unit tables. Cages must already be validated and sorted.
+    private Sudoku_Constraints(boolean diagonals, boolean windows, boolean antiKnight, int[][] cages, int[] cageSums)
+    {
+        this.diagonals = diagonals;
+        this.windows = windows;
+        this.antiKnight = antiKnight;
+        this.cages = cages;
+        this.cageSums = cageSums;
+        this.standard = !diagonals && !windows && !antiKnight && cages.length == 0;
+
+        // Units in a fixed order: rows, columns, boxes, diagonals, windows, then cages (digits in a cage never repeat)
+        List<int[]> all = standardUnits();
+        if (diagonals)
+            all.addAll(diagonalUnits());
+        if (windows)
+            for (int top : new int[] {1, 5})
+                for (int left : new int[] {1, 5})
+                    all.add(block(top, left));
+        all.addAll(Arrays.asList(cages));
+        units = all.toArray(new int[0][]);
+
+        // Name built from the same fixed order, e.g. "standard+diagonal+antiknight"
+        StringBuilder description = new StringBuilder("standard");
+        if (diagonals) description.append("+diagonal");
+        if (windows) description.append("+windoku");
+        if (antiKnight) description.append("+antiknight");
+        if (cages.length != 0) description.append("+killer").append(Arrays.deepToString(cages)).append(Arrays.toString(cageSums));
+        name = description.toString();
+
+        // Mark which cells each cell may not share a digit with
+        boolean[][] unitPeer = new boolean[CELLS][CELLS];
+        List<List<Integer>> unitsOfCell = new ArrayList<>();
+        for (int cell = 0; cell < CELLS; cell++)
+            unitsOfCell.add(new ArrayList<>());
+
+        for (int u = 0; u < units.length; u++)
+        {
+            for (int cell : units[u])
+            {
+                unitsOfCell.get(cell).add(u);
+                for (int other : units[u])
+                    if (other != cell) unitPeer[cell][other] = true;
+            }
+        }
+
+        boolean[][] knightPeer = new boolean[CELLS][CELLS];
+        if (antiKnight)
+        {
+            for (int cell = 0; cell < CELLS; cell++)
+            {
+                int row = cell / GRID_SIZE;
+                int col = cell % GRID_SIZE;
+                for (int[] move : KNIGHT_MOVES)
+                {
+                    int r = row + move[0];
+                    int c = col + move[1];
+                    if (r >= 0 && r < GRID_SIZE && c >= 0 && c < GRID_SIZE && !unitPeer[cell][r * GRID_SIZE + c])
+                        knightPeer[cell][r * GRID_SIZE + c] = true;
+                }
+            }
+        }
+
+        // Flatten everything into int arrays for the solver
+        unitsOf = new int[CELLS][];
+        peers = new int[CELLS][];
+        extraPeers = new int[CELLS][];
+        cageOf = new int[CELLS];
+        Arrays.fill(cageOf, -1);
+
+        for (int cell = 0; cell < CELLS; cell++)
+        {
+            unitsOf[cell] = unitsOfCell.get(cell).stream().mapToInt(Integer::intValue).toArray();
+            peers[cell] = cellsWhereEither(unitPeer[cell], knightPeer[cell]);
+            extraPeers[cell] = cellsWhere(knightPeer[cell]);
+        }
+
+        for (int k = 0; k < cages.length; k++)
+            for (int cell : cages[k])
+                cageOf[cell] = k;
+    }
+
+    // X-Sudoku: both main diagonals must also contain 1-9
+    public static Sudoku_Constraints diagonal() { return STANDARD.withDiagonals(); }
+
+    // Windoku: four extra 3x3 windows (rows/cols 1-3 and 5-7) must also contain 1-9
+    public static Sudoku_Constraints windoku() { return STANDARD.withWindows(); }
+
+    // Anti-knight: cells a chess knight's move apart may not hold the same digit
+    public static Sudoku_Constraints antiKnight() { return STANDARD.withAntiKnight(); }
+
+    // Killer Sudoku: each cage's digits differ and add up to its sum
+    public static Sudoku_Constraints killer(int[][] cages, int[] sums) { return STANDARD.withCages(cages, sums); }
+
+    // Returns these rules plus the two main diagonals as units
+    public Sudoku_Constraints withDiagonals()
+    {
+        return new Sudoku_Constraints(true, windows, antiKnight, cages, cageSums);
+    }
+
+    // Returns these rules plus the four windoku windows as units
+    public Sudoku_Constraints withWindows()
+    {
+        return new Sudoku_Constraints(diagonals, true, antiKnight, cages, cageSums);
+    }
+
+    // Returns these rules plus the anti-knight constraint
+    public Sudoku_Constraints withAntiKnight()
+    {
+        return new Sudoku_Constraints(diagonals, windows, true, cages, cageSums);
+    }
+
+    // Returns these rules plus killer cages. Cages hold cell indexes (row * 9 + col) and may not overlap.
+    public Sudoku_Constraints withCages(int[][] newCages, int[] sums)
+    {
+        if (cages.length != 0)
+            throw new IllegalStateException("Rule set already has cages");
+        if (newCages.length != sums.length)
+            throw new IllegalArgumentException("Every cage needs exactly one sum");
+
+        boolean[] used = new boolean[CELLS];
+        int[][] sorted = new int[newCages.length][];
+        for (int k = 0; k < newCages.length; k++)
+        {
+            if (newCages[k].length == 0 || newCages[k].length > GRID_SIZE)
+                throw new IllegalArgumentException("Cage " + k + " must have 1 to 9 cells");
+
+            // Smallest and largest sums reachable with distinct digits
+            int min = newCages[k].length * (newCages[k].length + 1) / 2;
+            int max = newCages[k].length * (2 * GRID_SIZE - newCages[k].length + 1) / 2;
+            if (sums[k] < min || sums[k] > max)
+                throw new IllegalArgumentException("Cage " + k + " sum " + sums[k] + " is impossible for " + newCages[k].length + " cells");
+
+            for (int cell : newCages[k])
+            {
+                if (cell < 0 || cell >= CELLS || used[cell])
+                    throw new IllegalArgumentException("Cage " + k + " has an invalid or shared cell " + cell);
+                used[cell] = true;
+            }
+
+            // Each cage as cell list + sum, cells sorted so the same cage always looks the same
+            sorted[k] = Arrays.copyOf(newCages[k], newCages[k].length + 1);
+            Arrays.sort(sorted[k], 0, newCages[k].length);
+            sorted[k][newCages[k].length] = sums[k];
+        }
+
+        // Cages don't overlap, so ordering them by first cell gives one canonical order
+        Arrays.sort(sorted, Comparator.comparingInt(cage -> cage[0]));
+
+        int[][] canonicalCages = new int[sorted.length][];
+        int[] canonicalSums = new int[sorted.length];
+        for (int k = 0; k < sorted.length; k++)
+        {
+            canonicalCages[k] = Arrays.copyOf(sorted[k], sorted[k].length - 1);
+            canonicalSums[k] = sorted[k][sorted[k].length - 1];
+        }
+
+        return new Sudoku_Constraints(diagonals, windows, antiKnight, canonicalCages, canonicalSums);
+    }
+
+    // Description of the rules themselves, e.g. "standard+diagonal+windoku". Equal rules give equal names,
+    // whatever order the variants were added in.
+    public String getName() { return name; }
+
+    // Row, column and 3x3 box units of plain Sudoku
+    private static List<int[]> standardUnits()
+    {
+        List<int[]> units = new ArrayList<>();
+        for (int i = 0; i < GRID_SIZE; i++)
+        {
+            int[] row = new int[GRID_SIZE];
+            int[] col = new int[GRID_SIZE];
+            for (int j = 0; j < GRID_SIZE; j++)
+            {
+                row[j] = i * GRID_SIZE + j;
+                col[j] = j * GRID_SIZE + i;
+            }
+            units.add(row);
+            units.add(col);
+        }
+        for (int top = 0; top < GRID_SIZE; top += 3)
+            for (int left = 0; left < GRID_SIZE; left += 3)
+                units.add(block(top, left));
+        return units;
+    }
+
+    // The main diagonal and the anti-diagonal
+    private static List<int[]> diagonalUnits()
+    {
+        int[] main = new int[GRID_SIZE];
+        int[] anti = new int[GRID_SIZE];
+        for (int i = 0; i < GRID_SIZE; i++)
+        {
+            main[i] = i * GRID_SIZE + i;
+            anti[i] = i * GRID_SIZE + (GRID_SIZE - 1 - i);
+        }
+        return Arrays.asList(main, anti);
+    }
+
+    // Cells of the 3x3 block whose top-left cell is (top, left)
+    private static int[] block(int top, int left)
+    {
+        int[] cells = new int[GRID_SIZE];
+        int i = 0;
+        for (int r = top; r < top + 3; r++)
+            for (int c = left; c < left + 3; c++)
+                cells[i++] = r * GRID_SIZE + c;
+        return cells;
+    }
+
+    // Indexes of all cells set in the flag array
+    private static int[] cellsWhere(boolean[] flags)
+    {
+        int[] cells = new int[CELLS];
+        int n = 0;
+        for (int cell = 0; cell < CELLS; cell++)
+            if (flags[cell]) cells[n++] = cell;
+        return Arrays.copyOf(cells, n);
+    }
+
+    // Indexes of all cells set in either flag array
+    private static int[] cellsWhereEither(boolean[] a, boolean[] b)
+    {
+        int[] cells = new int[CELLS];
+        int n = 0;
+        for (int cell = 0; cell < CELLS; cell++)
+            if (a[cell] || b[cell]) cells[n++] = cell;
+        return Arrays.copyOf(cells, n);
+    }
+}
\ No newline at end of file
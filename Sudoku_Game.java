@@ -1,6 +1,8 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 public class Sudoku_Game extends JFrame implements MouseListener 
 {
@@ -18,6 +20,7 @@ public class Sudoku_Game extends JFrame implements MouseListener
     private int highlightNumber = 0;             // Number highlighted via right click
     private int clues = 0;                       // Number of starting clues (depends on difficulty)
     private boolean gameOver = false;            // True when game ends (win or lose)
+    private Sudoku_History history;              // Move log for undo/redo (null when no game is running)
     
     // Difficulty constants (how many numbers are given at start)
     private static final int EASY_CLUES = 38;
@@ -75,6 +78,8 @@ public class Sudoku_Game extends JFrame implements MouseListener
         addButton("Rules", 872, 525, 200, 50, font);
         addButton("Restart", 872, 675, 200, 50, font);
         addButton("Quit", 872, 825, 200, 50, font);
+        addButton("Undo", 872, 905, 95, 50, font);
+        addButton("Redo", 977, 905, 95, 50, font);
     }
 
     // Helper to create a button, attach behavior, and add it to the panel
@@ -114,6 +119,14 @@ public class Sudoku_Game extends JFrame implements MouseListener
             case "Restart":
                 resetGame();                     // Clear and restart the board
                 break;
+            case "Undo":
+                if (history != null && !gameOver) 
+                    history.undo(placeOption);   // Take back the last placed number
+                break;
+            case "Redo":
+                if (history != null && !gameOver) 
+                    history.redo(placeOption);   // Put the last undone number back
+                break;
             default:                             // Quit button or anything else
                 dispose();                       // Close the window
                 break;
@@ -129,6 +142,7 @@ public class Sudoku_Game extends JFrame implements MouseListener
             // No game started yet → initialize with the chosen difficulty
             clues = newClues;
             placeOption = Sudoku_Generator.generateSudoku(clues);
+            history = new Sudoku_History(placeOption);
         } 
         else if (clues != newClues) 
             showPopUpMessage(); // If already playing with another difficulty, block & warn user
@@ -297,10 +311,61 @@ public class Sudoku_Game extends JFrame implements MouseListener
         gameOver = false;
         placeOption = new int[GRID_SIZE][GRID_SIZE]; 
         clues = 0;
+        history = null;
 
         drawPanel.repaint();
     }
 
+    // Saves the running game as a compact binary snapshot: clues, mistakes, then the move history.
+    // Returns null if no game has been started.
+    public byte[] saveSession() 
+    {
+        if (history == null) return null;
+
+        byte[] moves = history.toSnapshot();
+        return ByteBuffer.allocate(2 + moves.length)
+                .put((byte) clues)
+                .put((byte) numberMistakesMade)
+                .put(moves)
+                .array();
+    }
+
+    // Resumes a game written by saveSession, including its undo/redo history.
+    // The session is fully parsed first, so a corrupt one throws IllegalArgumentException and leaves the current game as it was.
+    public void restoreSession(byte[] session) 
+    {
+        if (session.length < 2) 
+            throw new IllegalArgumentException("Corrupt session: data ends early");
+
+        int savedClues = session[0];
+        int savedMistakes = session[1];
+        if (savedClues < 1 || savedClues > GRID_SIZE * GRID_SIZE || savedMistakes < 0 || savedMistakes > 3) 
+            throw new IllegalArgumentException("Corrupt session: invalid clue or mistake count");
+
+        int[][] savedBoard = new int[GRID_SIZE][GRID_SIZE];
+        Sudoku_History savedHistory = Sudoku_History.fromSnapshot(Arrays.copyOfRange(session, 2, session.length), savedBoard);
+
+        // Parsing succeeded, now replace the running game
+        resetGame();
+        clues = savedClues;
+        numberMistakesMade = savedMistakes;
+        placeOption = savedBoard;
+        history = savedHistory;
+
+        // A saved game may already be finished
+        gameOver = numberMistakesMade >= 3 || isBoardFull();
+        drawPanel.repaint();
+    }
+
+    // Checks whether every cell on the board holds a number
+    private boolean isBoardFull() 
+    {
+        for (int r = 0; r < GRID_SIZE; r++)
+            for (int c = 0; c < GRID_SIZE; c++)
+                if (placeOption[r][c] == 0) return false; // Found an empty cell
+        return true;
+    }
+
     // Handles all mouse click interactions (left + right click)
     public void mouseClicked(MouseEvent e) 
     {
@@ -357,8 +422,8 @@ public class Sudoku_Game extends JFrame implements MouseListener
                     selectedCol = col;
                 }
 
-                // Placing a number 
-                if (placeOption[row][col] == 0 && selectedBottomNumber != 0) 
+                // Placing a number (only once a game has been started, since moves go into its history)
+                if (history != null && placeOption[row][col] == 0 && selectedBottomNumber != 0) 
                 {
                     // Copy current board state for validation
                     int[][] solution = new int[GRID_SIZE][GRID_SIZE];
@@ -371,25 +436,14 @@ public class Sudoku_Game extends JFrame implements MouseListener
 
                     // Check user’s selected number against solution
                     if (solution[row][col] == selectedBottomNumber)
-                        placeOption[row][col] = selectedBottomNumber; // If its correct, place number
+                        history.place(placeOption, row, col, selectedBottomNumber); // If its correct, place number (logged for undo)
                     else
                         numberMistakesMade++; // Otherwise the user guessed wrong, increment mistake counter
 
                     selectedBottomNumber = 0; // Reset chosen number after placement
 
-                    // Check if board is full
-                    boolean full = true;
-                    outer:
-                    for (int r = 0; r < GRID_SIZE; r++)
-                        for (int c = 0; c < GRID_SIZE; c++)
-                            if (placeOption[r][c] == 0) // Found an empty cell
-                            {
-                                full = false;
-                                break outer;
-                            }
-
                     // End game conditions: board full OR 3 mistakes
-                    if (full) gameOver = true;
+                    if (isBoardFull()) gameOver = true;
                     if (numberMistakesMade >= 3) gameOver = true;
                 }
                 drawPanel.repaint(); // Refresh board after move
@@ -1,4 +1,6 @@
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Random;
 
 public class Sudoku_Generator 
@@ -9,90 +11,134 @@ public class Sudoku_Generator
     // Random number generator for shuffling and random cell selection
     private static final Random rand = new Random();
 
+    // How many filled boards to try before giving up on reaching the exact clue count
+    private static final int MAX_ATTEMPTS = 20;
+
+    // Maximum number of seeded puzzles kept in memory before the least recently used one is evicted
+    private static final int CACHE_CAPACITY = 64;
+
+    // Seeded puzzles keyed by (seed, clues, rule set). Access-ordered so the eldest entry is the least recently used.
+    private static final Map<String, int[][]> cache = new LinkedHashMap<String, int[][]>(16, 0.75f, true)
+    {
+        private static final long serialVersionUID = 1L;
+
+        protected boolean removeEldestEntry(Map.Entry<String, int[][]> eldest)
+        {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+
     // Generates a Sudoku puzzle with a given number of clues. Ensures the puzzle is solvable and has a unique solution. 
     public static int[][] generateSudoku(int clues) 
     {
-        // Start with an empty 9x9 board
-        int[][] board = new int[GRID_SIZE][GRID_SIZE];
+        return generateSudoku(clues, Sudoku_Constraints.STANDARD);
+    }
 
-        // PHASE A: Fill the board completely using the solver with shuffled numbers
-        int[] shuffled = getShuffledNumbers();
-        Sudoku_Solver.solveBoard(board, shuffled);
-        // At this point, 'board' contains a fully solved Sudoku puzzle
+    // Generates a puzzle for any rule set (diagonal, windoku, killer, ...), unique under those rules.
+    public static int[][] generateSudoku(int clues, Sudoku_Constraints rules) 
+    {
+        return generateSudoku(clues, rand, rules);
+    }
 
-        // PHASE B: Remove numbers while ensuring solvability and uniqueness
-        int cellsToRemove = GRID_SIZE * GRID_SIZE - clues; // total cells to erase
+    // Generates the puzzle identified by 'seed'. The same seed and clue count always give the same puzzle, on any JVM.
+    // Popular seeds are served from an LRU cache; callers always receive their own copy they are free to modify.
+    public static int[][] generateSudoku(int clues, long seed) 
+    {
+        return generateSudoku(clues, seed, Sudoku_Constraints.STANDARD);
+    }
 
-        while (cellsToRemove > 0) 
-        {
-            // Pick a random cell
-            int row = rand.nextInt(GRID_SIZE);
-            int col = rand.nextInt(GRID_SIZE);
+    // Seeded generation for any rule set. The same seed, clue count and rules always give the same puzzle.
+    public static int[][] generateSudoku(int clues, long seed, Sudoku_Constraints rules) 
+    {
+        // Include the clue count and rules in the key so each difficulty and variant gets its own entry for the same seed
+        String key = seed + ":" + clues + ":" + rules.getName();
 
-            // Only try to remove if the cell is not already empty
-            if (board[row][col] != 0) 
-            {
-                int backup = board[row][col];   // store the number in case we revert
-                board[row][col] = 0;            // temporarily remove the number
+        synchronized (cache) 
+        {
+            int[][] cached = cache.get(key);
+            if (cached != null) 
+                return deepCopy(cached);
+        }
 
-                int[][] copy = deepCopy(board); // copy the board to test uniqueness
+        // Generate outside the lock so a slow generation doesn't block lookups of other seeds
+        int[][] board = generateSudoku(clues, new Random(seed), rules);
 
-                // Only allow removal if the puzzle still has a unique solution
-                if (!hasUniqueSolution(copy))
-                    board[row][col] = backup;   // revert if removal breaks uniqueness
-                else
-                    cellsToRemove--; 			// removal is safe, count it
-            }
+        synchronized (cache) 
+        {
+            cache.put(key, deepCopy(board));
         }
-
-        // Return the final puzzle with exactly 'clues' numbers remaining
         return board;
     }
 
-    // Checks if a given Sudoku board has exactly one solution. Returns true if unique, false if multiple solutions exist. 
-    private static boolean hasUniqueSolution(int[][] board) 
+    // Shared generation logic. All randomness comes from 'random', so a seeded Random makes the result reproducible.
+    // If the clue target can't be reached from a filled board, a new board is drawn from the same Random. After
+    // MAX_ATTEMPTS tries the puzzle with the fewest clues is returned, so generation always ends.
+    private static int[][] generateSudoku(int clues, Random random, Sudoku_Constraints rules) 
     {
-        // countSolutions will recursively explore all solutions
-        return countSolutions(board, 0) == 1;
-    }
+        int[][] best = null;
+        int bestClues = 0;
 
-    // Recursively counts the number of solutions for a given board. Exits early if more than 1 solution is found to save time. 
-    private static int countSolutions(int[][] board, int count) 
-    {
-        for (int row = 0; row < GRID_SIZE; row++) 
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) 
         {
-            for (int col = 0; col < GRID_SIZE; col++) 
+            // Start with an empty 9x9 board
+            int[][] board = new int[GRID_SIZE][GRID_SIZE];
+
+            // PHASE A: Fill the board completely using the solver with shuffled numbers
+            int[] shuffled = getShuffledNumbers(random);
+            if (!Sudoku_Solver.solveBoard(board, shuffled, rules)) 
+                throw new IllegalArgumentException("Rule set has no solution"); // e.g. killer cages that contradict each other
+            // At this point, 'board' contains a fully solved Sudoku puzzle
+
+            // PHASE B: Remove numbers while ensuring solvability and uniqueness
+            int remaining = removeClues(board, clues, random, rules);
+
+            // Return the puzzle as soon as it has exactly 'clues' numbers remaining
+            if (remaining == clues) 
+                return board;
+
+            if (best == null || remaining < bestClues) 
             {
-                if (board[row][col] == 0) // found empty cell
-                {
-                    // Try all numbers 1-9 in this cell
-                    for (int num = 1; num <= GRID_SIZE; num++) 
-                    {
-                        if (Sudoku_Solver.isValidPlacement(board, num, row, col)) 
-                        {
-                            board[row][col] = num; // place number
-                            count = countSolutions(board, count); // recurse
-
-                            // Early exit: more than 1 solution found
-                            if (count > 1) 
-                            {
-                                board[row][col] = 0; // backtrack
-                                return count;        // no need to search further
-                            }
-
-                            board[row][col] = 0; // backtrack
-                        }
-                    }
-                    return count; // no number worked here, return current count
-                }
+                best = board;
+                bestClues = remaining;
             }
         }
-        return count + 1; // board completely filled = found one solution
+        return best; // target unreachable, fall back to the sparsest puzzle found
+    }
+
+    // Visits every cell once in random order and erases it if the puzzle stays unique, stopping at 'clues' numbers.
+    // Returns how many numbers are left, which is more than 'clues' if no further cell could be removed.
+    private static int removeClues(int[][] board, int clues, Random random, Sudoku_Constraints rules) 
+    {
+        int remaining = GRID_SIZE * GRID_SIZE;
+
+        for (int cell : getShuffledCells(random)) 
+        {
+            if (remaining == clues) break;
+
+            int row = cell / GRID_SIZE;
+            int col = cell % GRID_SIZE;
+            int backup = board[row][col];   // store the number in case we revert
+            board[row][col] = 0;            // temporarily remove the number
+
+            // Only allow removal if the puzzle still has a unique solution (the check leaves the board untouched)
+            if (!hasUniqueSolution(board, rules))
+                board[row][col] = backup;   // revert if removal breaks uniqueness
+            else
+                remaining--;                // removal is safe, count it
+        }
+        return remaining;
+    }
+
+    // Checks if a given Sudoku board has exactly one solution. Returns true if unique, false if multiple solutions exist. 
+    private static boolean hasUniqueSolution(int[][] board, Sudoku_Constraints rules) 
+    {
+        // Counting stops at 2, since a second solution already rules out uniqueness
+        return Sudoku_Solver.countSolutions(board, 2, rules) == 1;
     }
 
     
     // Generates a shuffled array of numbers 1-9. This randomization ensures different Sudoku solutions each time. 
-    private static int[] getShuffledNumbers() 
+    private static int[] getShuffledNumbers(Random random) 
     {
         int[] numbers = new int[GRID_SIZE];
         
@@ -100,16 +146,31 @@ public class Sudoku_Generator
         for (int i = 0; i < GRID_SIZE; i++) 
             numbers[i] = i + 1;
 
-        // Shuffles array
-        for (int i = 0; i < GRID_SIZE - 1; i++) 
+        shuffle(numbers, random);
+        return numbers; // return shuffled array
+    }
+
+    // Generates the cell indexes 0-80 (row * 9 + col) in random order
+    private static int[] getShuffledCells(Random random) 
+    {
+        int[] cells = new int[GRID_SIZE * GRID_SIZE];
+        for (int i = 0; i < cells.length; i++) 
+            cells[i] = i;
+
+        shuffle(cells, random);
+        return cells;
+    }
+
+    // Shuffles an array in place (Fisher-Yates)
+    private static void shuffle(int[] values, Random random) 
+    {
+        for (int i = 0; i < values.length - 1; i++) 
         {
-            int j = i + rand.nextInt(GRID_SIZE - i); // pick random index from i..8
-            int temp = numbers[i];
-            numbers[i] = numbers[j];
-            numbers[j] = temp;
+            int j = i + random.nextInt(values.length - i); // pick random index from i..end
+            int temp = values[i];
+            values[i] = values[j];
+            values[j] = temp;
         }
-        
-        return numbers; // return shuffled array
     }
     
     // Creates a deep copy of a Sudoku board. Necessary so that changes in one board don't affect others. 
@@ -0,0 +1,185 @@
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class Sudoku_History
+{
+    // The size of the Sudoku grid (9x9)
+    private static final int GRID_SIZE = 9;
+    private static final int CELLS = GRID_SIZE * GRID_SIZE;
+
+    // A board checkpoint is stored every SNAPSHOT_INTERVAL moves so replays never start far from a known state
+    private static final int SNAPSHOT_INTERVAL = 16;
+
+    // Format version written at the start of every saved history
+    private static final byte FORMAT_VERSION = 1;
+
+    // Move log. Each entry packs (cell << 8) | (digit << 4) | previous, with cell = row * 9 + col.
+    private int[] moves = new int[CELLS];
+    private int size = 0;      // Number of moves in the log (including undone moves that can be redone)
+    private int cursor = 0;    // Number of moves currently applied to the board
+
+    // Board checkpoints, one cell per byte. checkpoints[k] is the board after k * SNAPSHOT_INTERVAL moves.
+    private byte[][] checkpoints = new byte[CELLS / SNAPSHOT_INTERVAL + 1][];
+
+    // Starts an empty history for the given starting board
+    public Sudoku_History(int[][] board)
+    {
+        checkpoints[0] = toBytes(board);
+    }
+
+    // Places 'digit' at (row, col) on the board and logs it. Any moves that were undone can no longer be redone.
+    public void place(int[][] board, int row, int col, int digit)
+    {
+        int cell = row * GRID_SIZE + col;
+
+        // Grow the log if needed (only happens if the same cells are overwritten repeatedly)
+        if (cursor == moves.length)
+            moves = Arrays.copyOf(moves, moves.length * 2);
+
+        moves[cursor++] = (cell << 8) | (digit << 4) | board[row][col];
+        size = cursor; // drop the redo tail
+        board[row][col] = digit;
+
+        // Take a periodic checkpoint of the board
+        if (cursor % SNAPSHOT_INTERVAL == 0)
+        {
+            int k = cursor / SNAPSHOT_INTERVAL;
+            if (k == checkpoints.length)
+                checkpoints = Arrays.copyOf(checkpoints, checkpoints.length * 2);
+            checkpoints[k] = toBytes(board);
+        }
+    }
+
+    // Reverts the last applied move on the board. Returns false if there is nothing to undo.
+    public boolean undo(int[][] board)
+    {
+        if (cursor == 0) return false;
+
+        int move = moves[--cursor];
+        int cell = move >>> 8;
+        board[cell / GRID_SIZE][cell % GRID_SIZE] = move & 0xF; // restore previous value
+        return true;
+    }
+
+    // Re-applies the last undone move on the board. Returns false if there is nothing to redo.
+    public boolean redo(int[][] board)
+    {
+        if (cursor == size) return false;
+
+        int move = moves[cursor++];
+        int cell = move >>> 8;
+        board[cell / GRID_SIZE][cell % GRID_SIZE] = (move >>> 4) & 0xF; // place digit again
+        return true;
+    }
+
+    public boolean canUndo() { return cursor > 0; }
+    public boolean canRedo() { return cursor < size; }
+
+    // Number of moves currently applied to the board
+    public int getMoveCount() { return cursor; }
+
+    // Rebuilds the board as it was after 'moveCount' moves (0 = starting board), e.g. to replay a session.
+    // Starts from the nearest earlier checkpoint, so at most SNAPSHOT_INTERVAL - 1 moves are re-applied.
+    public int[][] boardAt(int moveCount)
+    {
+        if (moveCount < 0 || moveCount > size)
+            throw new IllegalArgumentException("Move " + moveCount + " is outside the history (0.." + size + ")");
+
+        int k = moveCount / SNAPSHOT_INTERVAL;
+        int[][] board = toBoard(checkpoints[k]);
+
+        for (int i = k * SNAPSHOT_INTERVAL; i < moveCount; i++)
+        {
+            int cell = moves[i] >>> 8;
+            board[cell / GRID_SIZE][cell % GRID_SIZE] = (moves[i] >>> 4) & 0xF;
+        }
+        return board;
+    }
+
+    // Writes the history into a compact binary snapshot:
+    // version, size, cursor, starting board (81 bytes), then one 2-byte entry per move.
+    public byte[] toSnapshot()
+    {
+        // Size and cursor are stored as shorts
+        if (size > Short.MAX_VALUE)
+            throw new IllegalStateException("History has " + size + " moves, more than a snapshot can hold (" + Short.MAX_VALUE + ")");
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 2 + 2 + CELLS + size * 2);
+        buffer.put(FORMAT_VERSION);
+        buffer.putShort((short) size);
+        buffer.putShort((short) cursor);
+        buffer.put(checkpoints[0]);
+
+        // A packed move fits in 15 bits, so it is stored as a short
+        for (int i = 0; i < size; i++)
+            buffer.putShort((short) moves[i]);
+
+        return buffer.array();
+    }
+
+    // Restores a history written by toSnapshot. 'board' receives the position with all applied moves.
+    public static Sudoku_History fromSnapshot(byte[] snapshot, int[][] board)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+        try
+        {
+            if (buffer.get() != FORMAT_VERSION)
+                throw new IllegalArgumentException("Unsupported history snapshot version");
+
+            int size = buffer.getShort();
+            int cursor = buffer.getShort();
+            if (size < 0 || cursor < 0 || cursor > size)
+                throw new IllegalArgumentException("Corrupt history snapshot");
+
+            byte[] start = new byte[CELLS];
+            buffer.get(start);
+            for (byte value : start)
+                if (value < 0 || value > GRID_SIZE)
+                    throw new IllegalArgumentException("Corrupt history snapshot: invalid starting board");
+
+            // Replay every logged move so the checkpoints are rebuilt, then step back to the saved cursor
+            int[][] work = toBoard(start);
+            Sudoku_History history = new Sudoku_History(work);
+            for (int i = 0; i < size; i++)
+            {
+                int move = buffer.getShort();
+                int cell = move >>> 8;
+                int digit = (move >>> 4) & 0xF;
+                if (move < 0 || cell >= CELLS || digit < 1 || digit > GRID_SIZE)
+                    throw new IllegalArgumentException("Corrupt history snapshot: invalid move " + i);
+                history.place(work, cell / GRID_SIZE, cell % GRID_SIZE, digit);
+            }
+            while (history.cursor > cursor)
+                history.undo(work);
+
+            for (int r = 0; r < GRID_SIZE; r++)
+                System.arraycopy(work[r], 0, board[r], 0, GRID_SIZE);
+            return history;
+        }
+        catch (BufferUnderflowException e)
+        {
+            throw new IllegalArgumentException("Corrupt history snapshot: data ends early", e);
+        }
+    }
+
+    // Packs a board into one byte per cell, row by row
+    private static byte[] toBytes(int[][] board)
+    {
+        byte[] bytes = new byte[CELLS];
+        for (int r = 0; r < GRID_SIZE; r++)
+            for (int c = 0; c < GRID_SIZE; c++)
+                bytes[r * GRID_SIZE + c] = (byte) board[r][c];
+        return bytes;
+    }
+
+    // Unpacks a board written by toBytes
+    private static int[][] toBoard(byte[] bytes)
+    {
+        int[][] board = new int[GRID_SIZE][GRID_SIZE];
+        for (int r = 0; r < GRID_SIZE; r++)
+            for (int c = 0; c < GRID_SIZE; c++)
+                board[r][c] = bytes[r * GRID_SIZE + c];
+        return board;
+    }
+}
\ No newline at end of file
@@ -3,40 +3,29 @@ public class Sudoku_Solver
     // The size of the Sudoku grid (9x9)
     private static final int GRID_SIZE = 9;
 
+    // Mask of all candidate bits (bits 1..9 set, bit 0 unused)
+    private static final int ALL_DIGITS = 0x3FE;
+
     // Solve the Sudoku board using backtracking.
     public static boolean solveBoard(int[][] board, int[] order) 
     {
-        // Loop through each row
-        for (int row = 0; row < GRID_SIZE; row++) 
-        {
-            // Loop through each column in the current row
-            for (int col = 0; col < GRID_SIZE; col++) 
-            {
-                // Find an empty cell (0 represents empty)
-                if (board[row][col] == 0) 
-                {
-                    // Try each number in the given order for this cell
-                    for (int num : order) 
-                    {
-                        // Check if placing 'num' here is valid (row, column, 3x3 box)
-                        if (isValidPlacement(board, num, row, col))
-                        {
-                            board[row][col] = num; // Place the number
+        return solveBoard(board, order, Sudoku_Constraints.STANDARD);
+    }
 
-                            // Recursively attempt to solve the rest of the board
-                            if (solveBoard(board, order)) 
-                                return true; // Found a solution
+    // Solve the board under any compiled rule set, trying numbers in the given order.
+    // Standard rules fill empty cells in row-major order, so the result (and every seeded puzzle) matches
+    // plain backtracking. Other rule sets fill forced cells first and otherwise branch on the cell with
+    // the fewest candidates, which keeps heavily constrained variants from wandering the search space.
+    public static boolean solveBoard(int[][] board, int[] order, Sudoku_Constraints rules) 
+    {
+        Search search = new Search(board, rules);
+        boolean solved = rules.standard ? search.solve(order, 0) : search.solveFewest(order);
+        if (!solved) 
+            return false;
 
-                            // Backtrack: reset the cell and try next number
-                            board[row][col] = 0;
-                        }
-                    }
-                    // If no number works in this empty cell, backtracking occurs
-                    return false;
-                }
-            }
-        }
-        // All cells are filled successfully → board is solved
+        // Copy the solution back onto the caller's board
+        for (int cell = 0; cell < GRID_SIZE * GRID_SIZE; cell++) 
+            board[cell / GRID_SIZE][cell % GRID_SIZE] = search.cells[cell];
         return true;
     }
 
@@ -53,30 +42,350 @@ public class Sudoku_Solver
         return solveBoard(board, order);
     }
 
+    // Counts the solutions of a board, stopping once 'limit' is reached. The board is left unchanged.
+    public static int countSolutions(int[][] board, int limit) 
+    {
+        return countSolutions(board, limit, Sudoku_Constraints.STANDARD);
+    }
+
+    // Counts the solutions of a board under any compiled rule set, stopping once 'limit' is reached.
+    // Always branches on the empty cell with the fewest candidates, which keeps the search tree small.
+    public static int countSolutions(int[][] board, int limit, Sudoku_Constraints rules) 
+    {
+        return new Search(board, rules).count(limit, 0);
+    }
+
     // Checks whether placing a number in a given cell is valid. Ensures no conflicts in row, column, or 3x3 box.
     public static boolean isValidPlacement(int[][] board, int number, int row, int col) 
     {
-        // Check the row 
-        for (int i = 0; i < GRID_SIZE; i++) 
-            if (board[row][i] == number) return false; // conflict in row
+        return isValidPlacement(board, number, row, col, Sudoku_Constraints.STANDARD);
+    }
 
-        // Check the column 
-        for (int i = 0; i < GRID_SIZE; i++) 
-            if (board[i][col] == number) return false; // conflict in column
+    // Checks whether placing a number in a given cell is valid under any compiled rule set
+    public static boolean isValidPlacement(int[][] board, int number, int row, int col, Sudoku_Constraints rules) 
+    {
+        int cell = row * GRID_SIZE + col;
 
-        // Check the 3x3 box 
-        // Calculate the starting row and column of the 3x3 box
-        int boxRow = row - row % 3;
-        int boxCol = col - col % 3;
+        // The cell belongs to its own row, so a number already there counts as a conflict
+        if (board[row][col] == number) return false;
 
-        // Loop through all cells in the 3x3 box
-        for (int r = boxRow; r < boxRow + 3; r++) 
+        // No peer may already hold the number
+        for (int peer : rules.peers[cell]) 
+            if (board[peer / GRID_SIZE][peer % GRID_SIZE] == number) return false;
+
+        // Killer cages: the number must not push the cage past its sum, and must hit it exactly if the cage is then full
+        int cage = rules.cageOf[cell];
+        if (cage >= 0) 
         {
-            for (int c = boxCol; c < boxCol + 3; c++) 
-                if (board[r][c] == number) return false; // conflict in box
+            int total = number;
+            boolean full = true;
+            for (int other : rules.cages[cage]) 
+            {
+                if (other == cell) continue;
+                int value = board[other / GRID_SIZE][other % GRID_SIZE];
+                total += value;
+                if (value == 0) full = false;
+            }
+            if (total > rules.cageSums[cage] || (full && total != rules.cageSums[cage])) return false;
         }
 
         // No conflicts -> placement is valid
         return true;
     }
+
+    // Search state over a compiled rule set. Each unit keeps a mask of the digits it already holds,
+    // so a cell's candidates are the OR of its few unit masks (3 for plain Sudoku) plus any extra peers.
+    private static final class Search 
+    {
+        final Sudoku_Constraints rules;
+        final int[] cells = new int[GRID_SIZE * GRID_SIZE]; // Board flattened to row * 9 + col
+        final int[] unitMasks;                              // Digits used in each unit (bit n set = digit n used)
+        final int[] cageLeft;                               // Sum still missing from each cage
+        final int[] cageEmpty;                              // Empty cells left in each cage
+        final int[] scratch;                                // Candidate masks computed by chooseCell (variants only)
+        int chosenCandidates;                               // Digits to try in the cell picked by chooseCell
+
+        Search(int[][] board, Sudoku_Constraints rules) 
+        {
+            this.rules = rules;
+            unitMasks = new int[rules.units.length];
+
+            // Plain Sudoku never looks for hidden singles and has no cages, so it skips that state entirely
+            scratch = rules.standard ? null : new int[GRID_SIZE * GRID_SIZE];
+            cageLeft = rules.cages.length == 0 ? rules.cageSums : rules.cageSums.clone();
+            cageEmpty = new int[rules.cages.length];
+            for (int k = 0; k < cageEmpty.length; k++) 
+                cageEmpty[k] = rules.cages[k].length;
+
+            // Apply the numbers already on the board
+            for (int cell = 0; cell < cells.length; cell++) 
+            {
+                int num = board[cell / GRID_SIZE][cell % GRID_SIZE];
+                if (num != 0) place(cell, num);
+            }
+        }
+
+        // Bitmask of the digits that can go into an empty cell
+        int candidates(int cell) 
+        {
+            // Plain Sudoku: every cell is in exactly three units (row, column, box) and nothing else
+            if (rules.standard) 
+            {
+                int[] units = rules.unitsOf[cell];
+                return ~(unitMasks[units[0]] | unitMasks[units[1]] | unitMasks[units[2]]) & ALL_DIGITS;
+            }
+
+            int used = 0;
+            for (int unit : rules.unitsOf[cell]) 
+                used |= unitMasks[unit];
+            for (int peer : rules.extraPeers[cell]) 
+                used |= 1 << cells[peer]; // an empty peer sets bit 0, which is masked off below
+
+            int mask = ~used & ALL_DIGITS;
+
+            // Killer cages: the last empty cell must complete the sum, others must leave at least 1 for each remaining cell
+            int cage = rules.cageOf[cell];
+            if (cage >= 0) 
+            {
+                int left = cageLeft[cage];
+                if (cageEmpty[cage] == 1) 
+                    mask &= (left >= 1 && left <= GRID_SIZE) ? 1 << left : 0;
+                else 
+                {
+                    int max = Math.min(left - (cageEmpty[cage] - 1), GRID_SIZE);
+                    mask &= max >= 1 ? (2 << max) - 2 : 0;
+                }
+            }
+            return mask;
+        }
+
+        void place(int cell, int num) 
+        {
+            int bit = 1 << num;
+            cells[cell] = num;
+            for (int unit : rules.unitsOf[cell]) 
+                unitMasks[unit] |= bit;
+
+            int cage = rules.cageOf[cell];
+            if (cage >= 0) 
+            {
+                cageLeft[cage] -= num;
+                cageEmpty[cage]--;
+            }
+        }
+
+        void remove(int cell) 
+        {
+            int num = cells[cell];
+            int bit = 1 << num;
+            cells[cell] = 0;
+            for (int unit : rules.unitsOf[cell]) 
+                unitMasks[unit] &= ~bit;
+
+            int cage = rules.cageOf[cell];
+            if (cage >= 0) 
+            {
+                cageLeft[cage] += num;
+                cageEmpty[cage]++;
+            }
+        }
+
+        // Backtracking worker. Fills empty cells in row-major order starting at 'cell' (0..80).
+        boolean solve(int[] order, int cell) 
+        {
+            // Skip ahead to the next empty cell (0 represents empty)
+            while (cell < cells.length && cells[cell] != 0) 
+                cell++;
+
+            // All cells are filled successfully → board is solved
+            if (cell == cells.length) 
+                return true;
+
+            int candidates = candidates(cell);
+
+            // Try each number in the given order for this cell
+            for (int num : order) 
+            {
+                if ((candidates & (1 << num)) != 0) 
+                {
+                    place(cell, num);
+
+                    // Recursively attempt to solve the rest of the board
+                    if (solve(order, cell + 1)) 
+                        return true; // Found a solution
+
+                    // Backtrack: reset the cell and try next number
+                    remove(cell);
+                }
+            }
+            // If no number works in this empty cell, backtracking occurs
+            return false;
+        }
+
+        // Backtracking worker for non-standard rule sets. Always fills the cell picked by chooseCell,
+        // trying numbers in the given order.
+        boolean solveFewest(int[] order) 
+        {
+            int best = chooseCell();
+            if (best == -1) return true;          // All cells are filled → board is solved
+            if (best == -2) return false;         // Dead end: some cell or digit has nowhere to go
+
+            int candidates = chosenCandidates;
+            for (int num : order) 
+            {
+                if ((candidates & (1 << num)) != 0) 
+                {
+                    place(best, num);
+                    if (solveFewest(order)) 
+                        return true; // Found a solution
+                    remove(best);    // Backtrack
+                }
+            }
+            return false;
+        }
+
+        // Picks the next cell to fill and stores the digits to try in chosenCandidates.
+        // A forced cell is returned first: one with a single candidate (naked single), or, for variants, the only
+        // cell in a full unit that can take some digit (hidden single). Otherwise the empty cell with the fewest
+        // candidates is returned; for variants, ties go to the cell with the most empty peers since it constrains the most.
+        // Returns -1 if the board is full, -2 if some cell or digit has nowhere to go.
+        int chooseCell() 
+        {
+            if (rules.standard) 
+                return fewestCandidatesCell();
+
+            int best = -1;
+            int bestCount = GRID_SIZE + 1;
+            int bestDegree = -1;
+
+            for (int cell = 0; cell < cells.length; cell++) 
+            {
+                if (cells[cell] != 0) continue;
+
+                int candidates = candidates(cell);
+                int n = Integer.bitCount(candidates);
+                if (n == 0) 
+                    return -2;
+
+                if (n == 1) 
+                {
+                    chosenCandidates = candidates;
+                    return cell; // naked single, can't do better
+                }
+
+                if (n <= bestCount) 
+                {
+                    int degree = 0;
+                    for (int peer : rules.peers[cell]) 
+                        if (cells[peer] == 0) degree++;
+
+                    if (n < bestCount || degree > bestDegree) 
+                    {
+                        best = cell;
+                        bestCount = n;
+                        bestDegree = degree;
+                        chosenCandidates = candidates;
+                    }
+                }
+                scratch[cell] = candidates;
+            }
+            if (best == -1) 
+                return -1;
+
+            // Hidden singles: in a unit of 9 cells every missing digit needs a home
+            for (int unit = 0; unit < rules.units.length; unit++) 
+            {
+                // Smaller units (killer cages) don't have to contain every digit
+                if (rules.units[unit].length != GRID_SIZE) continue;
+
+                int once = 0;  // Digits that fit in at least one empty cell of the unit
+                int twice = 0; // Digits that fit in at least two
+                for (int cell : rules.units[unit]) 
+                {
+                    if (cells[cell] != 0) continue;
+                    twice |= once & scratch[cell];
+                    once |= scratch[cell];
+                }
+
+                int missing = ~unitMasks[unit] & ALL_DIGITS;
+                if ((missing & ~once) != 0) 
+                    return -2; // a missing digit fits nowhere in this unit
+
+                int single = missing & once & ~twice;
+                if (single != 0) 
+                {
+                    int bit = Integer.lowestOneBit(single);
+                    for (int cell : rules.units[unit]) 
+                    {
+                        if (cells[cell] == 0 && (scratch[cell] & bit) != 0) 
+                        {
+                            chosenCandidates = bit;
+                            return cell;
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+
+        // Plain Sudoku search: the first empty cell with the fewest candidates, no hidden singles or tie-breaks.
+        // This is all standard rules need, and it keeps their per-node cost to a single pass over the board.
+        int fewestCandidatesCell() 
+        {
+            int best = -1;
+            int bestCount = GRID_SIZE + 1;
+
+            for (int cell = 0; cell < cells.length; cell++) 
+            {
+                if (cells[cell] != 0) continue;
+
+                int candidates = candidates(cell);
+                int n = Integer.bitCount(candidates);
+                if (n == 0) 
+                    return -2;
+
+                if (n < bestCount) 
+                {
+                    best = cell;
+                    bestCount = n;
+                    chosenCandidates = candidates;
+                    if (n == 1) break; // can't do better than a single candidate
+                }
+            }
+            return best;
+        }
+
+        // Recursive worker for countSolutions. 'count' is the number of solutions found so far.
+        int count(int limit, int count) 
+        {
+            // Find a forced cell, or else the empty cell with the fewest candidates
+            int best = chooseCell();
+
+            // No empty cell left = found one solution
+            if (best == -1) 
+                return count + 1;
+
+            // A cell or digit with nowhere to go means this branch has no solution
+            if (best == -2) 
+                return count;
+
+            int bestCandidates = chosenCandidates;
+
+            // Try every candidate, lowest digit first
+            while (bestCandidates != 0) 
+            {
+                int bit = Integer.lowestOneBit(bestCandidates);
+                bestCandidates &= ~bit;
+
+                place(best, Integer.numberOfTrailingZeros(bit));
+                count = count(limit, count); // recurse
+                remove(best);                // backtrack
+
+                // Early exit: enough solutions found, no need to search further
+                if (count >= limit) 
+                    return count;
+            }
+            return count;
+        }
+    }
 }
\ No newline at end of file